@@ -0,0 +1,27 @@
+package br.unb.cic.permutation;
+
+/**
+ * Bond and kappa-move computations over a structure-of-arrays batch of leaves of the same length n.
+ * <p>
+ * Symbols are laid out position-major: the symbol at position {@code p} of lane {@code l} is
+ * {@code symbols[p * stride + l]}. Bonds are laid out pair-major: {@code bonds[(a * n + b) * stride + l]}
+ * is 1 when positions {@code a} and {@code b} of lane {@code l} form a bond and 0 otherwise.
+ */
+interface BondKernel {
+
+    void computeBonds(int n, int stride, int from, int to, int[] symbols, int[] bonds);
+
+    void findKappaMoves(int n, int stride, int from, int to, int[] bonds, int kappa, boolean[] found);
+
+    static BondKernel get() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (BondKernel) Class.forName("br.unb.cic.permutation.VectorBondKernel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // falls back to the scalar kernel
+            }
+        }
+        return new ScalarBondKernel();
+    }
+}
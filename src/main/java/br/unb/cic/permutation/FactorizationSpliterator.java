@@ -0,0 +1,313 @@
+package br.unb.cic.permutation;
+
+import lombok.val;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Lazily enumerates the factorizations of a permutation in the same order as the recursive definition, walking the
+ * recursion tree with an explicit stack instead of the Java call stack.
+ * <p>
+ * The number of leaves below a node only depends on the cycle type of its permutation and on the length of the
+ * cycle containing 0, so it is memoized by that signature. These counts make the spliterator {@code SIZED} and
+ * {@code SUBSIZED} and let {@link #trySplit()} cut the remaining leaves in two halves of exactly the same size.
+ * Counts saturate at {@link Long#MAX_VALUE}; a tree that large is enumerated sequentially and reported as unsized.
+ */
+public class FactorizationSpliterator implements Spliterator<Permutation> {
+
+    private static final Map<List<Integer>, Long> COUNTS = new ConcurrentHashMap<>();
+
+    private final Node[] path;
+    private final int[] cursor;
+    private final boolean sized;
+    private int depth;
+    private long remaining;
+
+    public FactorizationSpliterator(final Permutation tau) {
+        val total = count(tau);
+        val root = node(tau);
+
+        this.path = new Node[Math.max(root.n, 0) + 1];
+        this.cursor = new int[path.length];
+        this.sized = total != Long.MAX_VALUE;
+        this.path[0] = root;
+        this.remaining = total;
+
+        if (total > 0) {
+            descend(0, 0, false);
+        }
+    }
+
+    private FactorizationSpliterator(final FactorizationSpliterator other, final long remaining) {
+        this.path = other.path.clone();
+        this.cursor = other.cursor.clone();
+        this.sized = other.sized;
+        this.depth = other.depth;
+        this.remaining = remaining;
+    }
+
+    /**
+     * The number of factorizations {@link Factorizations#factorizations(Permutation)} yields for {@code tau}.
+     */
+    public static long count(final Permutation tau) {
+        if (tau.isEven()) {
+            throw new RuntimeException("Tau must be an odd permutation");
+        }
+
+        return count(signature(tau), tau);
+    }
+
+    private static long count(final List<Integer> signature, final Permutation tau) {
+        val known = COUNTS.get(signature);
+        if (known != null) {
+            return known;
+        }
+
+        val stack = new ArrayDeque<Node>();
+        stack.push(new Node(tau));
+        while (!stack.isEmpty()) {
+            val node = stack.peek();
+            if (COUNTS.containsKey(node.signature)) {
+                stack.pop();
+                continue;
+            }
+
+            var total = node.isLeaf() ? node.offsets[1] : 0L;
+            Node pending = null;
+            for (var i = 0; i < node.children.length; i++) {
+                val count = COUNTS.get(node.childSignatures.get(i));
+                if (count == null) {
+                    pending = new Node(node.children[i]);
+                    break;
+                }
+                total = saturatedAdd(total, count);
+            }
+
+            if (pending != null) {
+                stack.push(pending);
+            } else {
+                COUNTS.put(node.signature, total);
+                stack.pop();
+            }
+        }
+
+        return COUNTS.get(signature);
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super Permutation> action) {
+        if (remaining == 0) {
+            return false;
+        }
+
+        action.accept(leaf());
+
+        if (sized) {
+            remaining--;
+        }
+        if (remaining > 0 && !next()) {
+            remaining = 0;
+        }
+
+        return true;
+    }
+
+    @Override
+    public Spliterator<Permutation> trySplit() {
+        if (!sized || remaining < 2) {
+            return null;
+        }
+
+        val half = remaining / 2;
+        val prefix = new FactorizationSpliterator(this, half);
+
+        descend(0, rank() + half, true);
+        remaining -= half;
+
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return remaining;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | IMMUTABLE | NONNULL | (sized ? SIZED | SUBSIZED : 0);
+    }
+
+    /**
+     * Folds the transpositions along the current path, from the deepest node up to the root.
+     */
+    private Permutation leaf() {
+        Permutation f = Factorizations.FIXED_0_1;
+        for (var d = depth - 1; d >= 0; d--) {
+            val node = path[d];
+            f = Factorizations.transposition(node.n, node.hs[cursor[d]]).times(f).conjugateBy(node.conjugator);
+        }
+        return f;
+    }
+
+    /**
+     * Moves to the next leaf in order, returning false when there is none.
+     */
+    private boolean next() {
+        for (var d = depth - 1; d >= 0; d--) {
+            val node = path[d];
+            for (var i = cursor[d] + 1; i < node.children.length; i++) {
+                if (node.offsets[i + 1] > node.offsets[i]) {
+                    cursor[d] = i;
+                    path[d + 1] = node(node.children[i]);
+                    descend(d + 1, 0, false);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Positions the path on the leaf of the given rank below {@code path[from]}. With {@code reuse}, the nodes
+     * already on the path are kept while the descent follows it.
+     */
+    private void descend(final int from, final long rank, final boolean reuse) {
+        var r = rank;
+        var onPath = reuse;
+        var d = from;
+        while (!path[d].isLeaf()) {
+            val node = path[d];
+            var i = 0;
+            while (node.offsets[i + 1] <= r) {
+                i++;
+            }
+
+            onPath &= d < depth && cursor[d] == i;
+            if (!onPath) {
+                cursor[d] = i;
+                path[d + 1] = node(node.children[i]);
+            }
+
+            r -= node.offsets[i];
+            d++;
+        }
+        depth = d;
+    }
+
+    /**
+     * A node whose per-branch leaf offsets are computed, so that it can be shared with split-off spliterators.
+     */
+    private static Node node(final Permutation tau) {
+        val node = new Node(tau);
+        if (!node.isLeaf()) {
+            val offsets = new long[node.children.length + 1];
+            for (var i = 0; i < node.children.length; i++) {
+                offsets[i + 1] = saturatedAdd(offsets[i], count(node.childSignatures.get(i), node.children[i]));
+            }
+            node.offsets = offsets;
+        }
+        return node;
+    }
+
+    private long rank() {
+        var rank = 0L;
+        for (var d = 0; d < depth; d++) {
+            rank += path[d].offsets[cursor[d]];
+        }
+        return rank;
+    }
+
+    private static long saturatedAdd(final long a, final long b) {
+        val sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * The length of the cycle containing 0 followed by the cycle type in non-increasing order, over the symbols
+     * 0 to {@code tau.getMaxSymbol()}.
+     */
+    private static List<Integer> signature(final Permutation tau) {
+        val n = tau.getMaxSymbol();
+        val seen = new boolean[n + 1];
+        val type = new ArrayList<Integer>();
+        var zeroLength = 0;
+        for (var start = 0; start <= n; start++) {
+            if (seen[start]) {
+                continue;
+            }
+            var length = 0;
+            for (var a = start; !seen[a]; a = tau.image(a)) {
+                seen[a] = true;
+                length++;
+            }
+            if (start == 0) {
+                zeroLength = length;
+            }
+            type.add(length);
+        }
+        type.sort(Collections.reverseOrder());
+        type.add(0, zeroLength);
+        return type;
+    }
+
+    /**
+     * A node of the recursion tree: its permutation, the conjugator applied at this level, the symbols {@code h}
+     * of the non-empty branches and the permutations factorized below them.
+     */
+    private static final class Node {
+        private final int n;
+        private final List<Integer> signature;
+        private final Cycle conjugator;
+        private final int[] hs;
+        private final Permutation[] children;
+        private final List<List<Integer>> childSignatures;
+        private long[] offsets;
+
+        private Node(final Permutation tau) {
+            this.n = tau.getMaxSymbol();
+            this.signature = signature(tau);
+
+            if (tau.image(0) == 0 || n == 1) {
+                this.conjugator = null;
+                this.hs = new int[0];
+                this.children = new Permutation[0];
+                this.childSignatures = List.of();
+                this.offsets = new long[]{0, tau.image(0) != 0 ? 1 : 0};
+                return;
+            }
+
+            val tauZero = tau.getInverse().image(0);
+            this.conjugator = Factorizations.transposition(tauZero, n);
+            val tauPrime = tau.conjugateBy(conjugator);
+
+            val size = tauPrime.image(0) < n ? n - 2 : n - 1;
+            this.hs = new int[size];
+            this.children = new Permutation[size];
+            this.childSignatures = new ArrayList<>(size);
+
+            var i = 0;
+            for (var h = 1; h < n; h++) {
+                if (h != tauPrime.image(0)) {
+                    val t = (MulticyclePermutation) Factorizations.threeCycle(n, h, 0).times(tauPrime);
+                    t.remove(Factorizations.fixed(n));
+
+                    hs[i] = h;
+                    children[i] = t;
+                    childSignatures.add(signature(t));
+                    i++;
+                }
+            }
+        }
+
+        private boolean isLeaf() {
+            return children.length == 0;
+        }
+    }
+}
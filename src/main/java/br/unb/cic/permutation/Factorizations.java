@@ -1,33 +1,37 @@
 package br.unb.cic.permutation;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Table;
 import lombok.val;
 
 import org.apache.commons.lang.ArrayUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Factorizations {
 
-    private static final Map<Integer, Cycle> FIXED_SYMBOLS_CACHE = Maps.newHashMap();
+    private static final Map<Integer, Cycle> FIXED_SYMBOLS_CACHE = new ConcurrentHashMap<>();
 
-    private static final Table<Integer, Integer, Map<Integer, Cycle>> THREE_CYCLES_CACHE = HashBasedTable.create();
+    private static final Map<Integer, Map<Integer, Map<Integer, Cycle>>> THREE_CYCLES_CACHE = new ConcurrentHashMap<>();
 
-    private static final Table<Integer, Integer, Cycle> TRANSPOSITIONS_CACHE = HashBasedTable.create();
+    private static final Map<Integer, Map<Integer, Cycle>> TRANSPOSITIONS_CACHE = new ConcurrentHashMap<>();
 
     public static final MulticyclePermutation FIXED_0_1 = new MulticyclePermutation(List.of(fixed(0), fixed(1)));
 
     private static final Cycle[] CANONICAL_LONG_CYCLES;
 
+    private static final int LEAF_BATCH_SIZE = 1024;
+
     static {
         CANONICAL_LONG_CYCLES = new Cycle[2000];
         for (var i = 1; i < 2000; i++) {
@@ -40,7 +44,7 @@ public class Factorizations {
     }
 
     public static void main(String[] args) {
-        unicycles(16);
+        unicycles(args.length > 0 ? Integer.parseInt(args[0]) : 16);
     }
 
     private static void unicycles(final int n) {
@@ -48,6 +52,13 @@ public class Factorizations {
 
         val fixedNPlus1 = Cycle.of(n + 1);
 
+        val batches = new ConcurrentLinkedQueue<LeafBatch>();
+        val batch = ThreadLocal.withInitial(() -> {
+            val b = new LeafBatch(n + 1, LEAF_BATCH_SIZE);
+            batches.add(b);
+            return b;
+        });
+
         factorizations(CANONICAL_LONG_CYCLES[n + 2])
                 .forEach(f -> {
                     val t = total.incrementAndGet();
@@ -62,83 +73,53 @@ public class Factorizations {
 
                     if (isCanonical(pi)) {
                        System.out.println("canonical " + Arrays.toString(pi));
-                       if (getKappaMoves(pi, 2).findAny().isEmpty()) {
-                           throw new RuntimeException("Unicycle " + Arrays.toString(pi) + " has no 2-moves");
+                       val b = batch.get();
+                       if (b.add(pi)) {
+                           checkTwoMoves(b);
                        }
                     }
                 });
 
+        batches.forEach(Factorizations::checkTwoMoves);
+
         System.out.println(total);
     }
 
-    public static Stream<Permutation> factorizations(final Permutation tau) {
-        if (tau.isEven()) {
-            throw new RuntimeException("Tau must be an odd permutation");
-        }
-
-        val n = tau.getMaxSymbol();
-
-        var result = Stream.<Permutation>empty();
-
-        if (tau.image(0) != 0) {
-            if (n == 1) {
-                result = Stream.of(FIXED_0_1);
-            } else {
-                val tauZero = tau.getInverse().image(0);
-
-                val conjugator = transposition(tauZero, tau.getMaxSymbol());
-                val tauPrime = tau.conjugateBy(conjugator);
-
-                result = IntStream.range(1, n).boxed().parallel().flatMap(h -> {
-                    if (h == tauPrime.image(0)) {
-                        return Stream.empty();
-                    } else {
-                        val t = ((MulticyclePermutation) threeCycle(n, h, 0).times(tauPrime));
-                        t.remove(fixed(n));
-
-                        return factorizations(t).map(f -> transposition(n, h).times(f).conjugateBy(conjugator));
-                    }
-                });
+    private static void checkTwoMoves(final LeafBatch batch) {
+        val hasTwoMoves = batch.hasKappaMoves(2);
+        for (var lane = 0; lane < batch.getSize(); lane++) {
+            if (!hasTwoMoves[lane]) {
+                throw new RuntimeException("Unicycle " + Arrays.toString(batch.get(lane)) + " has no 2-moves");
             }
         }
-
-        return result;
+        batch.clear();
     }
 
-    private static Cycle threeCycle(final int a, final int b, final int c) {
-        var map = THREE_CYCLES_CACHE.get(a, b);
-        if (map == null) {
-            THREE_CYCLES_CACHE.put(a, b, map = Maps.newHashMap());
-        }
-
-        var threeCycle = map.get(c);
-        if (threeCycle == null) {
-            map.put(c, threeCycle = Cycle.of(a, b, c));
-        }
-
-        return threeCycle;
+    public static Stream<Permutation> factorizations(final Permutation tau) {
+        return StreamSupport.stream(new FactorizationSpliterator(tau), true);
     }
 
-    private static Cycle fixed(final int a) {
-        var fixed = FIXED_SYMBOLS_CACHE.get(a);
-        if (fixed != null) {
-            return fixed;
-        }
-
-        FIXED_SYMBOLS_CACHE.put(a, fixed = Cycle.of(a));
-
-        return fixed;
+    /**
+     * Writes the factorizations of {@code tau} one per line, in the order of {@link #factorizations(Permutation)},
+     * using {@code parallelism} threads. The output does not depend on the number of threads.
+     */
+    public static void writeFactorizations(final Permutation tau, final OutputStream out, final int parallelism) throws IOException {
+        OrderedWriter.write(new FactorizationSpliterator(tau), Object::toString, out, parallelism);
     }
 
-    private static Cycle transposition(final int a, final int b) {
-        var transposition = TRANSPOSITIONS_CACHE.get(a, b);
-        if (transposition != null) {
-            return transposition;
-        }
+    static Cycle threeCycle(final int a, final int b, final int c) {
+        return THREE_CYCLES_CACHE.computeIfAbsent(a, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(b, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(c, k -> Cycle.of(a, b, c));
+    }
 
-        TRANSPOSITIONS_CACHE.put(a, b, transposition = Cycle.of(a, b));
+    static Cycle fixed(final int a) {
+        return FIXED_SYMBOLS_CACHE.computeIfAbsent(a, k -> Cycle.of(a));
+    }
 
-        return transposition;
+    static Cycle transposition(final int a, final int b) {
+        return TRANSPOSITIONS_CACHE.computeIfAbsent(a, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(b, k -> Cycle.of(a, b));
     }
 
     public static boolean isCanonical(final int[] p) {
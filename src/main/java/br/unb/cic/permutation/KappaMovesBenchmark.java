@@ -0,0 +1,102 @@
+package br.unb.cic.permutation;
+
+import lombok.val;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the per-leaf cost of the stream-based {@link Factorizations#getKappaMoves(int[], int)} check against
+ * {@link LeafBatch} with the scalar and the vectorized kernels, both on every leaf and on the canonical leaves only,
+ * as in {@link Factorizations#main(String[])}. Run with {@code --add-modules jdk.incubator.vector}
+ * to include the vectorized kernel.
+ */
+public class KappaMovesBenchmark {
+
+    private static final int ROUNDS = 30;
+
+    public static void main(String[] args) {
+        val n = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        val kappa = 2;
+
+        val tau = Cycle.of(IntStream.range(0, n + 2).toArray());
+        val fixedNPlus1 = Cycle.of(n + 1);
+        final List<int[]> leaves = Factorizations.factorizations(tau)
+                .map(f -> {
+                    val u = (MulticyclePermutation) f.conjugateBy(tau.getInverse());
+                    u.remove(fixedNPlus1);
+                    return u.asNCycle().getSymbols();
+                })
+                .filter(pi -> pi.length == n + 1)
+                .collect(Collectors.toList());
+
+        System.out.println(leaves.size() + " leaves of length " + (n + 1) + ", vectorized: " + LeafBatch.isVectorized());
+
+        for (var round = 0; round < ROUNDS; round++) {
+            System.out.println("round " + round);
+            report("  kappa check", leaves, n + 1, kappa, pi -> true);
+            report("  unicycles check (canonical, then kappa)", leaves, n + 1, kappa, Factorizations::isCanonical);
+        }
+    }
+
+    /**
+     * Times the stream-based check and the batched checks on the leaves accepted by {@code filter}, the filter
+     * itself included in every measurement.
+     */
+    private static void report(final String label, final List<int[]> leaves, final int length, final int kappa,
+                               final Predicate<int[]> filter) {
+        val streams = measure(leaves, () -> {
+            var count = 0L;
+            for (val pi : leaves) {
+                if (filter.test(pi) && Factorizations.getKappaMoves(pi, kappa).findAny().isPresent()) {
+                    count++;
+                }
+            }
+            return count;
+        });
+
+        val scalar = measureBatch(leaves, length, kappa, filter, new ScalarBondKernel());
+
+        System.out.print(label + ": streams " + streams + ", batch/scalar " + scalar);
+        if (LeafBatch.isVectorized()) {
+            System.out.print(", batch/vector " + measureBatch(leaves, length, kappa, filter, BondKernel.get()));
+        }
+        System.out.println();
+    }
+
+    private static String measureBatch(final List<int[]> leaves, final int length, final int kappa,
+                                       final Predicate<int[]> filter, final BondKernel kernel) {
+        val batch = new LeafBatch(length, 1024, kernel);
+        return measure(leaves, () -> {
+            var count = 0L;
+            for (val pi : leaves) {
+                if (filter.test(pi) && batch.add(pi)) {
+                    count += count(batch, kappa);
+                }
+            }
+            return count + count(batch, kappa);
+        });
+    }
+
+    private static long count(final LeafBatch batch, final int kappa) {
+        val found = batch.hasKappaMoves(kappa);
+        var count = 0L;
+        for (var lane = 0; lane < batch.getSize(); lane++) {
+            if (found[lane]) {
+                count++;
+            }
+        }
+        batch.clear();
+        return count;
+    }
+
+    private static String measure(final List<int[]> leaves, final LongSupplier task) {
+        val start = System.nanoTime();
+        val count = task.getAsLong();
+        val elapsed = System.nanoTime() - start;
+        return String.format("%.1f ns/leaf (%d with moves)", (double) elapsed / leaves.size(), count);
+    }
+}
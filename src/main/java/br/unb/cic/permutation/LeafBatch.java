@@ -0,0 +1,107 @@
+package br.unb.cic.permutation;
+
+import lombok.Getter;
+
+/**
+ * Collects leaves (symbol arrays of length n) into a structure-of-arrays buffer so that bond masks and
+ * kappa moves are computed for the whole batch at once, using the Vector API when it is available.
+ */
+public class LeafBatch {
+
+    private static final BondKernel KERNEL = BondKernel.get();
+
+    @Getter
+    private final int n;
+    private final int capacity;
+    private final BondKernel kernel;
+    private final int[][] leaves;
+    private final int[] symbols;
+    private final int[] bonds;
+    private final boolean[] found;
+    @Getter
+    private int size;
+    private boolean bondsComputed;
+
+    public LeafBatch(final int n, final int capacity) {
+        this(n, capacity, KERNEL);
+    }
+
+    LeafBatch(final int n, final int capacity, final BondKernel kernel) {
+        this.n = n;
+        this.capacity = capacity;
+        this.kernel = kernel;
+        this.leaves = new int[capacity][];
+        this.symbols = new int[n * capacity];
+        this.bonds = new int[n * n * capacity];
+        this.found = new boolean[capacity];
+    }
+
+    public static boolean isVectorized() {
+        return KERNEL instanceof VectorBondKernel;
+    }
+
+    /**
+     * Adds a leaf, whose symbols must be in {@code [0, n)}, to the batch and returns true when the batch is full.
+     */
+    public boolean add(final int[] pi) {
+        if (size == capacity) {
+            throw new IllegalStateException("Leaf batch is full");
+        }
+        if (pi.length != n) {
+            throw new IllegalArgumentException("Leaf length must be " + n);
+        }
+
+        for (var p = 0; p < n; p++) {
+            if (pi[p] < 0 || pi[p] >= n) {
+                throw new IllegalArgumentException("Leaf symbols must be in [0, " + n + ")");
+            }
+            symbols[p * capacity + size] = pi[p];
+        }
+        leaves[size++] = pi;
+        bondsComputed = false;
+
+        return size == capacity;
+    }
+
+    public int[] get(final int lane) {
+        return leaves[lane];
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+        bondsComputed = false;
+    }
+
+    /**
+     * Equivalent to {@link Factorizations#isBond(int[], int, int)} for the leaf at {@code lane}.
+     */
+    public boolean isBond(final int lane, final int i, final int j) {
+        computeBonds();
+        return bonds[(Math.floorMod(i, n) * n + Math.floorMod(j, n)) * capacity + lane] == 1;
+    }
+
+    /**
+     * For each leaf in the batch, whether {@link Factorizations#getKappaMoves(int[], int)} is non-empty.
+     * The returned array is reused by subsequent calls.
+     */
+    public boolean[] hasKappaMoves(final int kappa) {
+        computeBonds();
+        kernel.findKappaMoves(n, capacity, 0, size, bonds, kappa, found);
+        return found;
+    }
+
+    private void computeBonds() {
+        if (!bondsComputed) {
+            kernel.computeBonds(n, capacity, 0, size, symbols, bonds);
+            bondsComputed = true;
+        }
+    }
+}
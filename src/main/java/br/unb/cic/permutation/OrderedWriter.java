@@ -0,0 +1,201 @@
+package br.unb.cic.permutation;
+
+import lombok.val;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes the elements of a spliterator one per line, in encounter order, while formatting them in parallel.
+ * <p>
+ * Chunks of contiguous ranks are taken from the front of the spliterator in encounter order, so a chunk's position is
+ * its place in the canonical order. Each chunk is formatted by a worker into its own buffer, and the buffers are copied
+ * to the output in chunk order. Workers never wait for each other; at most {@code WINDOW_PER_THREAD * parallelism}
+ * chunks are in flight. Chunks are sized from the bytes per element seen so far to fill about half of
+ * {@code bufferSize}, so a buffer only spills to a temporary file when its lines are much longer than average. With
+ * the default buffer size, the buffers in flight take at most a quarter of the maximum heap. The output is
+ * byte-identical for any run and any parallelism.
+ */
+public class OrderedWriter {
+
+    private static final int CHUNKS_PER_THREAD = 16;
+
+    private static final int WINDOW_PER_THREAD = 4;
+
+    private static final long INITIAL_CHUNK_SIZE = 1024;
+
+    private static final int MIN_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_BUFFER_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Writes with a buffer size derived from the maximum heap, spilling to the default temporary directory.
+     */
+    public static <T> void write(final Spliterator<T> spliterator, final Function<? super T, String> format,
+                                 final OutputStream out, final int parallelism) throws IOException {
+        val heapShare = Runtime.getRuntime().maxMemory() / (4L * WINDOW_PER_THREAD * parallelism);
+        val bufferSize = (int) Math.max(MIN_BUFFER_SIZE, Math.min(MAX_BUFFER_SIZE, heapShare));
+        write(spliterator, format, out, parallelism, bufferSize, null);
+    }
+
+    /**
+     * Writes with buffers that spill to {@code directory}, or to the default temporary directory when it is null, once
+     * they hold more than {@code bufferSize} bytes.
+     */
+    public static <T> void write(final Spliterator<T> spliterator, final Function<? super T, String> format,
+                                 final OutputStream out, final int parallelism, final int bufferSize,
+                                 final File directory) throws IOException {
+        val rest = new ArrayDeque<Spliterator<T>>();
+        rest.push(spliterator);
+
+        val sized = spliterator.hasCharacteristics(Spliterator.SUBSIZED);
+        val balanced = sized
+                ? Math.max(1, spliterator.estimateSize() / ((long) parallelism * CHUNKS_PER_THREAD))
+                : Long.MAX_VALUE;
+        var chunkSize = Math.min(balanced, INITIAL_CHUNK_SIZE);
+        var bytes = 0L;
+        var elements = 0L;
+
+        val executor = Executors.newFixedThreadPool(parallelism);
+        val pending = new ArrayDeque<Future<DeferredFileOutputStream>>();
+        val sizes = new ArrayDeque<Long>();
+
+        try {
+            while (!rest.isEmpty() || !pending.isEmpty()) {
+                while (!rest.isEmpty() && pending.size() < parallelism * WINDOW_PER_THREAD) {
+                    val chunk = next(rest, chunkSize);
+                    sizes.add(chunk.estimateSize());
+                    pending.add(executor.submit(() -> format(chunk, format, bufferSize, directory)));
+                }
+
+                val buffer = get(pending.poll());
+                try {
+                    buffer.writeTo(out);
+                } finally {
+                    FileUtils.deleteQuietly(buffer.getFile());
+                }
+
+                bytes += buffer.getByteCount();
+                elements += sizes.poll();
+                if (sized && bytes > 0) {
+                    chunkSize = Math.min(balanced, Math.max(1, (long) (bufferSize / 2.0 * elements / bytes)));
+                }
+            }
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+            discard(executor, pending);
+        }
+    }
+
+    /**
+     * Takes the next chunk from the front of {@code rest}, halving it until it holds at most {@code size} elements and
+     * keeping the split-off suffixes in encounter order. Spliterators that are not {@code SUBSIZED} are taken whole.
+     */
+    private static <T> Spliterator<T> next(final ArrayDeque<Spliterator<T>> rest, final long size) {
+        var chunk = rest.pop();
+        while (chunk.hasCharacteristics(Spliterator.SUBSIZED) && chunk.estimateSize() > size) {
+            val prefix = chunk.trySplit();
+            if (prefix == null) {
+                break;
+            }
+            rest.push(chunk);
+            chunk = prefix;
+        }
+        return chunk;
+    }
+
+    /**
+     * Formats a chunk into its buffer. A worker interrupted by {@code shutdownNow} stops and deletes its spilled file,
+     * even when it was interrupted after its last element.
+     */
+    private static <T> DeferredFileOutputStream format(final Spliterator<T> chunk, final Function<? super T, String> format,
+                                                       final int bufferSize, final File directory) throws IOException {
+        val buffer = new DeferredFileOutputStream(bufferSize, "ordered-", ".tmp", directory);
+        try (final var writer = new BufferedWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8))) {
+            final Consumer<T> write = e -> {
+                try {
+                    writer.write(format.apply(e));
+                    writer.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            };
+            while (!Thread.currentThread().isInterrupted() && chunk.tryAdvance(write)) {
+                // keeps formatting until the chunk is exhausted or the writer is shut down
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Formatting was cancelled");
+            }
+        } catch (UncheckedIOException e) {
+            FileUtils.deleteQuietly(buffer.getFile());
+            throw e.getCause();
+        } catch (IOException | RuntimeException | Error e) {
+            FileUtils.deleteQuietly(buffer.getFile());
+            throw e;
+        }
+        return buffer;
+    }
+
+    private static DeferredFileOutputStream get(final Future<DeferredFileOutputStream> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            val interrupted = new InterruptedIOException("Writing was interrupted");
+            interrupted.initCause(e);
+            throw interrupted;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Removes the spilled files of chunks that were formatted but never merged. Chunks still running delete their own
+     * files once they see the interruption.
+     */
+    private static void discard(final ExecutorService executor,
+                                final ArrayDeque<Future<DeferredFileOutputStream>> pending) {
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (val future : pending) {
+            if (future.isDone() && !future.isCancelled()) {
+                try {
+                    FileUtils.deleteQuietly(future.get().getFile());
+                } catch (InterruptedException | ExecutionException e) {
+                    // nothing was spilled
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package br.unb.cic.permutation;
+
+class ScalarBondKernel implements BondKernel {
+
+    @Override
+    public void computeBonds(final int n, final int stride, final int from, final int to,
+                             final int[] symbols, final int[] bonds) {
+        for (var a = 0; a < n; a++) {
+            for (var l = from; l < to; l++) {
+                final var next = symbols[a * stride + l] + 1;
+                final var successor = next == n ? 0 : next;
+                for (var b = 0; b < n; b++) {
+                    bonds[(a * n + b) * stride + l] = successor == symbols[b * stride + l] ? 1 : 0;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void findKappaMoves(final int n, final int stride, final int from, final int to,
+                               final int[] bonds, final int kappa, final boolean[] found) {
+        for (var l = from; l < to; l++) {
+            found[l] = hasKappaMove(n, stride, l, bonds, kappa);
+        }
+    }
+
+    private static boolean hasKappaMove(final int n, final int stride, final int l, final int[] bonds, final int kappa) {
+        for (var i = 0; i < n - 2; i++) {
+            final var iPrev = i == 0 ? n - 1 : i - 1;
+            for (var j = i + 1; j < n - 1; j++) {
+                final var ij = bonds[(iPrev * n + j) * stride + l];
+                for (var k = j + 1; k < n; k++) {
+                    final var count = ij + bonds[((k - 1) * n + i) * stride + l] + bonds[((j - 1) * n + k) * stride + l];
+                    if (count == kappa) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package br.unb.cic.permutation;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link BondKernel} backed by {@code jdk.incubator.vector}: each vector operation processes one position
+ * (or position pair) of as many leaves as there are lanes. Only loaded when the module is present.
+ */
+class VectorBondKernel implements BondKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private final ScalarBondKernel tail = new ScalarBondKernel();
+
+    @Override
+    public void computeBonds(final int n, final int stride, final int from, final int to,
+                             final int[] symbols, final int[] bonds) {
+        final var bound = from + SPECIES.loopBound(to - from);
+        final var zero = IntVector.zero(SPECIES);
+
+        for (var l = from; l < bound; l += SPECIES.length()) {
+            for (var a = 0; a < n; a++) {
+                final var next = IntVector.fromArray(SPECIES, symbols, a * stride + l).add(1);
+                final var successor = next.blend(0, next.compare(VectorOperators.EQ, n));
+                for (var b = 0; b < n; b++) {
+                    final var bond = successor.compare(VectorOperators.EQ, IntVector.fromArray(SPECIES, symbols, b * stride + l));
+                    zero.blend(1, bond).intoArray(bonds, (a * n + b) * stride + l);
+                }
+            }
+        }
+
+        tail.computeBonds(n, stride, bound, to, symbols, bonds);
+    }
+
+    @Override
+    public void findKappaMoves(final int n, final int stride, final int from, final int to,
+                               final int[] bonds, final int kappa, final boolean[] found) {
+        final var bound = from + SPECIES.loopBound(to - from);
+
+        for (var l = from; l < bound; l += SPECIES.length()) {
+            var any = SPECIES.maskAll(false);
+            search:
+            for (var i = 0; i < n - 2; i++) {
+                final var iPrev = i == 0 ? n - 1 : i - 1;
+                for (var j = i + 1; j < n - 1; j++) {
+                    final var ij = IntVector.fromArray(SPECIES, bonds, (iPrev * n + j) * stride + l);
+                    for (var k = j + 1; k < n; k++) {
+                        final var count = ij
+                                .add(IntVector.fromArray(SPECIES, bonds, ((k - 1) * n + i) * stride + l))
+                                .add(IntVector.fromArray(SPECIES, bonds, ((j - 1) * n + k) * stride + l));
+                        any = any.or(count.compare(VectorOperators.EQ, kappa));
+                    }
+                    if (any.allTrue()) {
+                        break search;
+                    }
+                }
+            }
+            any.intoArray(found, l);
+        }
+
+        tail.findKappaMoves(n, stride, bound, to, bonds, kappa, found);
+    }
+}
@@ -0,0 +1,182 @@
+package br.unb.cic.permutation;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FactorizationSpliteratorTest {
+
+    @Test
+    void matchesRecursionForNCycles() {
+        for (val n : new int[]{4, 6, 8, 10}) {
+            val tau = longCycle(n);
+            val expected = reference(tau);
+
+            assertEquals(expected, strings(new FactorizationSpliterator(tau)), "n = " + n);
+            assertEquals(expected.size(), FactorizationSpliterator.count(tau), "n = " + n);
+            assertEquals(expected.size(), new FactorizationSpliterator(tau).getExactSizeIfKnown(), "n = " + n);
+        }
+    }
+
+    @Test
+    void isEmptyWhenTauFixesZero() {
+        val tau = new MulticyclePermutation("(0)(1 2 3 4)");
+
+        assertEquals(List.of(), reference(tau));
+        assertEquals(List.of(), strings(new FactorizationSpliterator(tau)));
+        assertEquals(0, FactorizationSpliterator.count(tau));
+        assertEquals(0, Factorizations.factorizations(tau).count());
+    }
+
+    @Test
+    void matchesRecursionForRandomOddPermutations() {
+        val random = new Random(27);
+        var checked = 0;
+        while (checked < 200) {
+            val tau = randomPermutation(random, 3 + random.nextInt(7), checked % 4 == 0);
+            if (tau.isEven()) {
+                continue;
+            }
+
+            val expected = reference(tau);
+            assertEquals(expected, strings(new FactorizationSpliterator(tau)), tau.toString());
+            assertEquals(expected.size(), FactorizationSpliterator.count(tau), tau.toString());
+            checked++;
+        }
+    }
+
+    @Test
+    void splitsIntoExactlySizedPrefixes() {
+        val random = new Random(28);
+        val tau = longCycle(10);
+        val expected = reference(tau);
+
+        for (var round = 0; round < 20; round++) {
+            val parts = new ArrayList<Spliterator<Permutation>>();
+            parts.add(new FactorizationSpliterator(tau));
+            for (var split = 0; split < 40; split++) {
+                val i = random.nextInt(parts.size());
+                val prefix = parts.get(i).trySplit();
+                if (prefix != null) {
+                    parts.add(i, prefix);
+                }
+            }
+
+            val actual = new ArrayList<String>();
+            for (val part : parts) {
+                assertTrue(part.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+                val size = part.estimateSize();
+                val before = actual.size();
+                part.forEachRemaining(f -> actual.add(f.toString()));
+                assertEquals(size, actual.size() - before);
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void supportsParallelCollectSkipAndLimit() {
+        val tau = longCycle(10);
+        val expected = reference(tau);
+
+        assertEquals(expected, Factorizations.factorizations(tau).map(Object::toString).collect(Collectors.toList()));
+        assertEquals(expected.subList(1000, 1010), Factorizations.factorizations(tau)
+                .skip(1000).limit(10).map(Object::toString).collect(Collectors.toList()));
+        assertEquals(expected.subList(expected.size() - 5, expected.size()), Factorizations.factorizations(tau)
+                .skip(expected.size() - 5).map(Object::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    void rejectsEvenPermutations() {
+        val tau = new MulticyclePermutation("(0 3)(1 4 2 5 6 7 8 9)");
+
+        assertThrows(RuntimeException.class, () -> new FactorizationSpliterator(tau));
+        assertThrows(RuntimeException.class, () -> FactorizationSpliterator.count(tau));
+        assertThrows(RuntimeException.class, () -> Factorizations.factorizations(tau));
+    }
+
+    /**
+     * The recursive definition the spliterator replaces, evaluated sequentially.
+     */
+    private static List<String> reference(final Permutation tau) {
+        return recurse(tau).map(Object::toString).collect(Collectors.toList());
+    }
+
+    private static Stream<Permutation> recurse(final Permutation tau) {
+        val n = tau.getMaxSymbol();
+
+        if (tau.image(0) == 0) {
+            return Stream.empty();
+        }
+        if (n == 1) {
+            return Stream.of(Factorizations.FIXED_0_1);
+        }
+
+        val conjugator = Cycle.of(tau.getInverse().image(0), n);
+        val tauPrime = tau.conjugateBy(conjugator);
+
+        return IntStream.range(1, n).boxed().flatMap(h -> {
+            if (h == tauPrime.image(0)) {
+                return Stream.empty();
+            }
+
+            val t = (MulticyclePermutation) Cycle.of(n, h, 0).times(tauPrime);
+            t.remove(Cycle.of(n));
+
+            return recurse(t).map(f -> Cycle.of(n, h).times(f).conjugateBy(conjugator));
+        });
+    }
+
+    private static List<String> strings(final Spliterator<Permutation> spliterator) {
+        val result = new ArrayList<String>();
+        spliterator.forEachRemaining(f -> result.add(f.toString()));
+        return result;
+    }
+
+    private static Cycle longCycle(final int n) {
+        return Cycle.of(IntStream.range(0, n).toArray());
+    }
+
+    /**
+     * A random permutation of {@code 0..max}, written with all of its 1-cycles.
+     */
+    private static MulticyclePermutation randomPermutation(final Random random, final int max, final boolean fixZero) {
+        val images = IntStream.rangeClosed(0, max).toArray();
+        for (var i = max; i > 0; i--) {
+            val j = random.nextInt(i + 1);
+            val image = images[i];
+            images[i] = images[j];
+            images[j] = image;
+        }
+        if (fixZero) {
+            val zero = IntStream.rangeClosed(0, max).filter(i -> images[i] == 0).findFirst().getAsInt();
+            images[zero] = images[0];
+            images[0] = 0;
+        }
+
+        val permutation = new MulticyclePermutation();
+        val seen = new boolean[max + 1];
+        for (var start = 0; start <= max; start++) {
+            val cycle = new ArrayList<Integer>();
+            for (var a = start; !seen[a]; a = images[a]) {
+                seen[a] = true;
+                cycle.add(a);
+            }
+            if (!cycle.isEmpty()) {
+                permutation.add(Cycle.of(cycle.stream().mapToInt(Integer::intValue).toArray()));
+            }
+        }
+        return permutation;
+    }
+}
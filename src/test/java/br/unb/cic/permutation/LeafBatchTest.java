@@ -0,0 +1,101 @@
+package br.unb.cic.permutation;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeafBatchTest {
+
+    private static final int[] LENGTHS = {3, 4, 5, 8, 9, 12};
+
+    private static final int[] CAPACITIES = {1, 7, 33};
+
+    @Test
+    void usesTheVectorKernelWhenTheModuleIsPresent() {
+        assertTrue(LeafBatch.isVectorized());
+    }
+
+    @Test
+    void matchesGetKappaMoves() {
+        val random = new Random(26);
+        for (val kernel : kernels()) {
+            for (val n : LENGTHS) {
+                for (val capacity : CAPACITIES) {
+                    for (val size : IntStream.of(capacity, (capacity + 1) / 2).distinct().toArray()) {
+                        val batch = fill(random, n, capacity, size, kernel);
+                        for (var kappa = 0; kappa <= 3; kappa++) {
+                            val found = batch.hasKappaMoves(kappa);
+                            for (var lane = 0; lane < size; lane++) {
+                                val pi = batch.get(lane);
+                                assertEquals(Factorizations.getKappaMoves(pi, kappa).findAny().isPresent(), found[lane],
+                                        kernel.getClass().getSimpleName() + ", kappa " + kappa + ", pi " + Arrays.toString(pi));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesIsBond() {
+        val random = new Random(27);
+        for (val kernel : kernels()) {
+            for (val n : LENGTHS) {
+                for (val capacity : CAPACITIES) {
+                    val batch = fill(random, n, capacity, capacity, kernel);
+                    for (var lane = 0; lane < capacity; lane++) {
+                        val pi = batch.get(lane);
+                        for (var i = -n - 1; i <= 2 * n; i++) {
+                            for (var j = -n - 1; j <= 2 * n; j++) {
+                                assertEquals(Factorizations.isBond(pi, i, j), batch.isBond(lane, i, j),
+                                        kernel.getClass().getSimpleName() + ", i " + i + ", j " + j);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsInvalidLeaves() {
+        val batch = new LeafBatch(4, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> batch.add(new int[]{0, 1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> batch.add(new int[]{0, 1, 2, 4}));
+        assertThrows(IllegalArgumentException.class, () -> batch.add(new int[]{0, -1, 2, 3}));
+
+        assertTrue(batch.add(new int[]{0, 2, 1, 3}));
+        assertThrows(IllegalStateException.class, () -> batch.add(new int[]{0, 1, 2, 3}));
+        assertEquals(1, batch.getSize());
+    }
+
+    private static List<BondKernel> kernels() {
+        return List.of(new ScalarBondKernel(), BondKernel.get());
+    }
+
+    private static LeafBatch fill(final Random random, final int n, final int capacity, final int size,
+                                  final BondKernel kernel) {
+        val batch = new LeafBatch(n, capacity, kernel);
+        for (var lane = 0; lane < size; lane++) {
+            val pi = IntStream.range(0, n).toArray();
+            for (var i = n - 1; i > 0; i--) {
+                val j = random.nextInt(i + 1);
+                val symbol = pi[i];
+                pi[i] = pi[j];
+                pi[j] = symbol;
+            }
+            batch.add(pi);
+        }
+        return batch;
+    }
+}
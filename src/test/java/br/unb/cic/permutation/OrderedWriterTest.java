@@ -0,0 +1,62 @@
+package br.unb.cic.permutation;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderedWriterTest {
+
+    private static final Cycle TAU = Cycle.of(IntStream.range(0, 8).toArray());
+
+    @TempDir
+    File directory;
+
+    @Test
+    void writesTheSameBytesForAnyParallelismAndBufferSize() throws IOException {
+        // lines longer than the smallest buffer, so that every chunk spills
+        final Function<Permutation, String> format = f -> f + " " + "x".repeat(100);
+        val expected = Factorizations.factorizations(TAU)
+                .map(f -> format.apply(f) + "\n")
+                .collect(Collectors.joining())
+                .getBytes(StandardCharsets.UTF_8);
+
+        for (val parallelism : new int[]{1, 2, 4, 8}) {
+            for (val bufferSize : new int[]{64, 1 << 20}) {
+                val out = new ByteArrayOutputStream();
+                OrderedWriter.write(new FactorizationSpliterator(TAU), format, out, parallelism, bufferSize, directory);
+                assertArrayEquals(expected, out.toByteArray(), parallelism + " threads, " + bufferSize + " bytes");
+                assertEquals(0, spilledFiles());
+            }
+        }
+    }
+
+    @Test
+    void rethrowsUncheckedFailuresAsIs() {
+        val thrown = assertThrows(IllegalStateException.class, () -> OrderedWriter.write(
+                new FactorizationSpliterator(TAU),
+                f -> {
+                    throw new IllegalStateException("boom");
+                },
+                new ByteArrayOutputStream(), 4, 64, directory));
+
+        assertEquals("boom", thrown.getMessage());
+        assertEquals(0, spilledFiles());
+    }
+
+    private int spilledFiles() {
+        return Objects.requireNonNull(directory.list()).length;
+    }
+}